@@ -0,0 +1,184 @@
+package monitor;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded down and resume history for one website
+ *
+ * Alerts are kept as structured records in a fixed-size ring and only turned into strings when printed.
+ * A global cap limits records across all websites, though every website always keeps at least its latest alert.
+ * A flapping website gets its alerts suppressed.
+ * Availability and latency alerts are counted separately, a down alert is never suppressed,
+ * and the latest suppressed state is reported once the flapping window is over.
+ *
+ * @author Jiayuan Hu
+ *
+ */
+public class AlertHistory {
+
+	// Records kept for each website and for all websites together
+	static final int SITE_CAPACITY = 20;
+	static final int GLOBAL_CAPACITY = 1000;
+
+	// More alerts of one kind than this within the window means the website is flapping
+	static final double FLAP_WINDOW = 1000 * 60 * 10;
+	static final int FLAP_LIMIT = 6;
+
+	// Number of records allocated by all websites, each website may take its first record even when it's full
+	static final AtomicInteger globalCount = new AtomicInteger();
+
+	AlertRecord[] records;
+	int allocated;
+	int head;
+	int size;
+
+	// Flap suppression counters for availability and latency alerts
+	FlapCounter availabilityFlap;
+	FlapCounter latencyFlap;
+	int suppressedCount;
+
+	public AlertHistory() {
+		this.records = new AlertRecord[SITE_CAPACITY];
+		this.availabilityFlap = new FlapCounter();
+		this.latencyFlap = new FlapCounter();
+	}
+
+	/**
+	 * Record an alert, overwriting the oldest one when this website or all websites are at capacity
+	 * @param siteId Website the alert belongs to
+	 * @param state Alert state
+	 * @param value Availability rate or response time
+	 * @param baseline Baseline response time, 0 for availability alert
+	 * @param currentTime Time point for this alert
+	 * @return Stored record, null if alert is suppressed
+	 */
+	public synchronized AlertRecord add(String siteId, AlertState state, double value, double baseline, double currentTime) {
+		FlapCounter flap = state.isAvailability() ? this.availabilityFlap : this.latencyFlap;
+
+		// Count alerts in a fixed window and suppress the rest once it's flapping, but never hide a down alert
+		if (currentTime - flap.windowStart >= FLAP_WINDOW) {
+			flap.windowStart = currentTime;
+			flap.windowCount = 0;
+		}
+		if (++flap.windowCount > FLAP_LIMIT && state != AlertState.DOWN) {
+			this.suppressedCount++;
+
+			// Keep the latest suppressed state so it can be reported once the window is over
+			flap.pendingSiteId = siteId;
+			flap.pendingState = state;
+			flap.pendingValue = value;
+			flap.pendingBaseline = baseline;
+			flap.pendingTime = currentTime;
+			return null;
+		}
+		flap.pendingState = null;
+		flap.lastState = state;
+
+		return store(siteId, state, value, baseline, currentTime);
+	}
+
+	/**
+	 * Record the latest suppressed alert once its flapping window is over, if it changed the reported state
+	 * The record keeps the time the alert was suppressed, so it's printed late but with its original time
+	 * @param availability Availability alerts if true, latency alerts otherwise
+	 * @param currentTime Time point for this check
+	 * @return Stored record, null if there is nothing to report
+	 */
+	public synchronized AlertRecord flushSuppressed(boolean availability, double currentTime) {
+		FlapCounter flap = availability ? this.availabilityFlap : this.latencyFlap;
+		if (flap.pendingState == null || currentTime - flap.windowStart < FLAP_WINDOW) return null;
+
+		AlertState state = flap.pendingState;
+		flap.pendingState = null;
+		if (state == flap.lastState) return null;
+
+		// Reported alert starts a new window
+		flap.windowStart = currentTime;
+		flap.windowCount = 1;
+		flap.lastState = state;
+
+		return store(flap.pendingSiteId, state, flap.pendingValue, flap.pendingBaseline, flap.pendingTime);
+	}
+
+	/**
+	 * Store an alert in the ring
+	 * @param siteId Website the alert belongs to
+	 * @param state Alert state
+	 * @param value Availability rate or response time
+	 * @param baseline Baseline response time, 0 for availability alert
+	 * @param currentTime Time point for this alert
+	 * @return Stored record
+	 */
+	private AlertRecord store(String siteId, AlertState state, double value, double baseline, double currentTime) {
+		// Ring grows up to its capacity while global capacity allows, then overwrites its oldest record.
+		// Once it has wrapped it keeps its size, since growing would put a blank slot in the middle of the ring.
+		if (this.size == this.allocated) {
+			boolean growable = this.allocated < SITE_CAPACITY && this.head == 0;
+			if (growable && (globalCount.incrementAndGet() <= GLOBAL_CAPACITY || this.allocated == 0)) {
+				this.records[this.allocated++] = new AlertRecord();
+			} else {
+				if (growable) {
+					globalCount.decrementAndGet();
+				}
+				this.head = (this.head + 1) % this.allocated;
+				this.size--;
+			}
+		}
+
+		int index = (this.head + this.size) % this.allocated;
+		AlertRecord record = this.records[index];
+		record.siteId = siteId;
+		record.state = state;
+		record.value = value;
+		record.baseline = baseline;
+		record.time = (long) currentTime;
+		this.size++;
+
+		return record;
+	}
+
+	/**
+	 * Format all records from oldest to newest
+	 * @return Alerting messages ready for printer
+	 */
+	public synchronized List<String> getMessages() {
+		List<String> messages = new ArrayList<>(this.size);
+		for (int i = 0; i < this.size; i++) {
+			messages.add(this.records[(this.head + i) % this.allocated].format());
+		}
+
+		return messages;
+	}
+
+	/**
+	 * Reset record count of all websites, used by tests
+	 */
+	static void resetGlobalCount() {
+		globalCount.set(0);
+	}
+
+	public synchronized int size() {
+		return this.size;
+	}
+
+	public synchronized int getSuppressedCount() {
+		return this.suppressedCount;
+	}
+
+	/**
+	 * Defined to count alerts of one kind within the flapping window
+	 */
+	static class FlapCounter {
+		double windowStart;
+		int windowCount;
+		AlertState lastState;
+
+		// Latest suppressed alert, null if none
+		String pendingSiteId;
+		AlertState pendingState;
+		double pendingValue;
+		double pendingBaseline;
+		double pendingTime;
+	}
+}
@@ -0,0 +1,130 @@
+package monitor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AlertHistoryTest {
+
+	// Global record count is shared by all websites, so reset it before and after each test
+	@BeforeEach
+	@AfterEach
+	void reset() {
+		AlertHistory.resetGlobalCount();
+	}
+
+	@Test
+	void testSiteCapacity() {
+		AlertHistory history = new AlertHistory();
+		double currentTime = 0;
+
+		// Space alerts out so none of them is suppressed as flapping
+		for (int i = 0; i < AlertHistory.SITE_CAPACITY + 5; i++) {
+			history.add("http://RingWebsite", AlertState.SLOW, i, 0, currentTime);
+			currentTime += AlertHistory.FLAP_WINDOW;
+		}
+
+		// Only the newest records are kept, from oldest to newest
+		List<String> messages = history.getMessages();
+		assertEquals(AlertHistory.SITE_CAPACITY, history.size());
+		assertEquals(AlertHistory.SITE_CAPACITY, messages.size());
+		for (int i = 0; i < messages.size(); i++) {
+			assertEquals(true, messages.get(i).contains("Response time = " + (double) (i + 5) + ","));
+		}
+		assertEquals(0, history.getSuppressedCount());
+	}
+
+	@Test
+	void testFlapSuppression() {
+		AlertHistory history = new AlertHistory();
+		double currentTime = 0;
+
+		// Flapping latency within one window
+		for (int i = 0; i < AlertHistory.FLAP_LIMIT + 4; i++) {
+			history.add("http://FlapWebsite", i % 2 == 0 ? AlertState.SLOW : AlertState.RESPONSE_TIME_RESUMES, 100, 100, currentTime);
+			currentTime += 1000;
+		}
+		assertEquals(AlertHistory.FLAP_LIMIT, history.size());
+		assertEquals(4, history.getSuppressedCount());
+
+		// Latency alerts don't use up availability budget
+		assertNotNull(history.add("http://FlapWebsite", AlertState.DOWN, 0, 0, currentTime));
+		assertNotNull(history.add("http://FlapWebsite", AlertState.AVAILABILITY_RESUMES, 1, 0, currentTime));
+
+		// Last suppressed state is slow, it's reported only once the window is over
+		history.add("http://FlapWebsite", AlertState.SLOW, 300, 100, currentTime);
+		assertEquals(5, history.getSuppressedCount());
+		assertNull(history.flushSuppressed(false, currentTime));
+		AlertRecord record = history.flushSuppressed(false, AlertHistory.FLAP_WINDOW);
+		assertEquals(AlertState.SLOW, record.state);
+		assertEquals(true, history.getMessages().get(history.size() - 1).startsWith("Website http://FlapWebsite is slow. "));
+		assertNull(history.flushSuppressed(false, AlertHistory.FLAP_WINDOW));
+	}
+
+	@Test
+	void testDownNeverSuppressed() {
+		AlertHistory history = new AlertHistory();
+		double currentTime = 0;
+
+		for (int i = 0; i < AlertHistory.FLAP_LIMIT * 2; i++) {
+			AlertState state = i % 2 == 0 ? AlertState.DOWN : AlertState.AVAILABILITY_RESUMES;
+			AlertRecord record = history.add("http://FlapWebsite", state, i, 0, currentTime);
+			if (state == AlertState.DOWN) {
+				assertNotNull(record);
+			}
+			currentTime += 1000;
+		}
+		assertEquals(AlertHistory.FLAP_LIMIT / 2, history.getSuppressedCount());
+
+		// Site is back up but the resume was suppressed, it's reported with its original time once the window is over
+		double resumeTime = currentTime - 1000;
+		assertNull(history.flushSuppressed(true, currentTime));
+		assertNull(history.flushSuppressed(false, AlertHistory.FLAP_WINDOW));
+		AlertRecord record = history.flushSuppressed(true, AlertHistory.FLAP_WINDOW);
+		assertEquals(AlertState.AVAILABILITY_RESUMES, record.state);
+		assertEquals((long) resumeTime, record.time);
+		assertEquals(true, history.getMessages().get(history.size() - 1).startsWith("Website http://FlapWebsite's availability resumes. "));
+		assertNull(history.flushSuppressed(true, AlertHistory.FLAP_WINDOW));
+	}
+
+	@Test
+	void testGlobalCapacity() {
+		// Use up all global capacity
+		for (int i = 0; i < AlertHistory.GLOBAL_CAPACITY / AlertHistory.SITE_CAPACITY; i++) {
+			AlertHistory history = new AlertHistory();
+			for (int j = 0; j < AlertHistory.SITE_CAPACITY; j++) {
+				history.add("http://FullWebsite", AlertState.SLOW, j, 0, j * AlertHistory.FLAP_WINDOW);
+			}
+		}
+
+		// A new website still keeps its latest alert
+		AlertHistory history = new AlertHistory();
+		for (int j = 0; j < 3; j++) {
+			assertNotNull(history.add("http://NewWebsite", AlertState.DOWN, j, 0, j * AlertHistory.FLAP_WINDOW));
+		}
+		assertEquals(1, history.size());
+		assertEquals(true, history.getMessages().get(0).contains("Availability = 2.0,"));
+		assertEquals(0, history.getSuppressedCount());
+	}
+
+	@Test
+	void testNoGrowthAfterWrap() {
+		// Leave room for two records only, so the ring wraps at two
+		AlertHistory.globalCount.set(AlertHistory.GLOBAL_CAPACITY - 2);
+		AlertHistory history = new AlertHistory();
+		for (int j = 0; j < 3; j++) {
+			history.add("http://WrapWebsite", AlertState.DOWN, j, 0, j * AlertHistory.FLAP_WINDOW);
+		}
+
+		// Freed global capacity must not break the wrapped ring
+		AlertHistory.resetGlobalCount();
+		history.add("http://WrapWebsite", AlertState.DOWN, 3, 0, 3 * AlertHistory.FLAP_WINDOW);
+
+		List<String> messages = history.getMessages();
+		assertEquals(2, messages.size());
+		assertEquals(true, messages.get(0).contains("Availability = 2.0,"));
+		assertEquals(true, messages.get(1).contains("Availability = 3.0,"));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package monitor;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+
+/**
+ * Defined to store one alert, formatted only when printed
+ */
+class AlertRecord {
+	// DateTimeFormatter is immutable and thread-safe, so one instance is shared by every record
+	static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT).withZone(ZoneId.systemDefault());
+
+	String siteId;
+	AlertState state;
+	double value;
+	double baseline;
+	long time;
+
+	/**
+	 * Format this record into a readable message
+	 * @return Alerting message
+	 */
+	String format() {
+		String date = DATE_FORMATTER.format(Instant.ofEpochMilli(this.time));
+
+		switch (this.state) {
+		case DOWN:
+			return "Website " + this.siteId + " is down. Availability = " + this.value + ", time = " + date;
+		case AVAILABILITY_RESUMES:
+			return "Website " + this.siteId + "'s availability resumes. Availability = " + this.value + ", time = " + date;
+		case SLOW:
+			return "Website " + this.siteId + " is slow. Response time = " + this.value + ", baseline = " + this.baseline + ", time = " + date;
+		default:
+			return "Website " + this.siteId + "'s response time resumes. Response time = " + this.value + ", baseline = " + this.baseline + ", time = " + date;
+		}
+	}
+}
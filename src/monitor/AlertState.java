@@ -0,0 +1,12 @@
+package monitor;
+
+/**
+ * Defined to distinguish down and resume alerts
+ */
+enum AlertState {
+	DOWN, AVAILABILITY_RESUMES, SLOW, RESPONSE_TIME_RESUMES;
+
+	boolean isAvailability() {
+		return this == DOWN || this == AVAILABILITY_RESUMES;
+	}
+}
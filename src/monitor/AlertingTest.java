@@ -18,11 +18,11 @@ class AlertingTest {
 		Thread.sleep(1000 * 60 * 3);
 		
 		// Google should works fine
-		assertEquals(0, testGoogle.alertingMessageList.size());
+		assertEquals(0, testGoogle.alertHistory.size());
 		assertEquals(true, testGoogle.availabilityForAltering);
 		
 		// This wrong website should have alerting message
-		assertEquals(true, testFailure.alertingMessageList.get(0).startsWith("Website http://FailureWebsite is down. "));
+		assertEquals(true, testFailure.alertHistory.getMessages().get(0).startsWith("Website http://FailureWebsite is down. "));
 		assertEquals(false, testFailure.availabilityForAltering);
 	}
 }
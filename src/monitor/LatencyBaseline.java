@@ -0,0 +1,180 @@
+package monitor;
+
+import java.util.Arrays;
+
+/**
+ * Streaming latency baseline for one website, updated in O(1) per sample
+ *
+ * Keeps an exponentially weighted moving mean and variance, so no sample history is needed.
+ * Optionally keeps one mean per hour of day, updated once a day, for sites whose latency follows a daily pattern.
+ *
+ * @author Jiayuan Hu
+ *
+ */
+public class LatencyBaseline {
+
+	// Weight of the newest sample, roughly the last 1 / ALPHA samples dominate the baseline
+	static final double ALPHA = 0.05;
+
+	// Samples needed before a baseline is trusted for scoring
+	static final int WARM_UP_COUNT = 30;
+
+	// Deviation is never taken below this fraction of the mean, so a very stable site doesn't alert on jitter
+	static final double MIN_RELATIVE_DEVIATION = 0.1;
+
+	static final int HOURS_PER_DAY = 24;
+	static final double HOUR_IN_MILLIS = 1000 * 60 * 60;
+
+	// Weight of the newest day in an hour-of-day bucket, roughly the last 1 / SEASONAL_ALPHA days dominate it
+	static final double SEASONAL_ALPHA = 0.2;
+
+	// Days needed before an hour-of-day bucket is trusted for scoring
+	static final int SEASONAL_WARM_UP_DAYS = 3;
+
+	double mean;
+	double variance;
+	int sampleCount;
+
+	// Hour-of-day buckets, only allocated when seasonal baseline is enabled
+	float[] seasonalMean;
+	byte[] seasonalDays;
+
+	// Running sum of the current hour, folded into its bucket once the hour is over
+	int currentHour = -1;
+	double hourSum;
+	int hourCount;
+
+	public LatencyBaseline() {}
+
+	public LatencyBaseline(boolean seasonal) {
+		if (seasonal) {
+			this.seasonalMean = new float[HOURS_PER_DAY];
+			this.seasonalDays = new byte[HOURS_PER_DAY];
+		}
+	}
+
+	/**
+	 * Score a response time against the current baseline without changing it
+	 * @param responseTime Site response time
+	 * @param currentTime Time point for this request
+	 * @return z-score of this sample, 0 if baseline is still warming up
+	 */
+	public double getZScore(double responseTime, double currentTime) {
+		if (this.seasonalMean != null) {
+			int hour = getHourOfDay(currentTime);
+
+			// Prefer the hour-of-day mean once it has enough days, deviation still comes from the overall baseline
+			if (this.seasonalDays[hour] >= SEASONAL_WARM_UP_DAYS && this.sampleCount >= WARM_UP_COUNT) {
+				return getZScore(responseTime, this.seasonalMean[hour], this.variance);
+			}
+		}
+
+		return this.sampleCount >= WARM_UP_COUNT ? getZScore(responseTime, this.mean, this.variance) : 0;
+	}
+
+	/**
+	 * Fold a response time into the baseline
+	 * @param responseTime Site response time
+	 * @param currentTime Time point for this request
+	 */
+	public void update(double responseTime, double currentTime) {
+		if (this.seasonalMean != null) {
+			int hour = getHourOfDay(currentTime);
+
+			if (hour != this.currentHour) {
+				foldHour();
+				this.currentHour = hour;
+			}
+			this.hourSum += responseTime;
+			this.hourCount++;
+		}
+
+		// Incremental EWMA mean and variance, the first sample seeds the mean with no variance
+		if (this.sampleCount == 0) {
+			this.mean = responseTime;
+		} else {
+			double diff = responseTime - this.mean;
+			double increment = ALPHA * diff;
+			this.mean += increment;
+			this.variance = (1 - ALPHA) * (this.variance + diff * increment);
+		}
+		if (this.sampleCount < Integer.MAX_VALUE) {
+			this.sampleCount++;
+		}
+	}
+
+	/**
+	 * Fold the average of the hour just finished into its hour-of-day bucket, so each bucket moves once a day
+	 */
+	private void foldHour() {
+		if (this.hourCount == 0) return;
+
+		double hourMean = this.hourSum / this.hourCount;
+		if (this.seasonalDays[this.currentHour] == 0) {
+			this.seasonalMean[this.currentHour] = (float) hourMean;
+		} else {
+			this.seasonalMean[this.currentHour] += (float) (SEASONAL_ALPHA * (hourMean - this.seasonalMean[this.currentHour]));
+		}
+		if (this.seasonalDays[this.currentHour] < Byte.MAX_VALUE) {
+			this.seasonalDays[this.currentHour]++;
+		}
+
+		this.hourSum = 0;
+		this.hourCount = 0;
+	}
+
+	/**
+	 * Forget everything learned so far, used when latency has moved to a new level
+	 */
+	public void reset() {
+		this.mean = 0;
+		this.variance = 0;
+		this.sampleCount = 0;
+
+		if (this.seasonalMean != null) {
+			Arrays.fill(this.seasonalMean, 0);
+			Arrays.fill(this.seasonalDays, (byte) 0);
+			this.currentHour = -1;
+			this.hourSum = 0;
+			this.hourCount = 0;
+		}
+	}
+
+	/**
+	 * Check whether baseline has enough samples for scoring
+	 * @return Readiness of this baseline
+	 */
+	public boolean isReady() {
+		return this.sampleCount >= WARM_UP_COUNT;
+	}
+
+	public double getMean() {
+		return this.mean;
+	}
+
+	public double getDeviation() {
+		return Math.sqrt(this.variance);
+	}
+
+	/**
+	 * Calculate how many deviations a sample is above the baseline mean
+	 * @param responseTime Site response time
+	 * @param mean Baseline mean
+	 * @param variance Baseline variance
+	 * @return z-score of this sample
+	 */
+	private double getZScore(double responseTime, double mean, double variance) {
+		double deviation = Math.max(Math.sqrt(variance), MIN_RELATIVE_DEVIATION * mean);
+
+		return deviation == 0 ? 0 : (responseTime - mean) / deviation;
+	}
+
+	/**
+	 * Get hour of day (UTC) of a time point
+	 * @param currentTime Time point in millisecond
+	 * @return Hour of day in [0, 23]
+	 */
+	private int getHourOfDay(double currentTime) {
+		return (int) ((long) (currentTime / HOUR_IN_MILLIS) % HOURS_PER_DAY);
+	}
+}
@@ -0,0 +1,131 @@
+package monitor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.net.URL;
+import org.junit.jupiter.api.Test;
+
+class LatencyBaselineTest {
+
+	@Test
+	void test() throws Exception {
+		WebRequestData testSlow = new WebRequestData(new URL("http://SlowWebsite"), 1000);
+		double currentTime = System.currentTimeMillis();
+		
+		// Stable response time should build the baseline without alerting
+		for (int i = 0; i < 60; i++) {
+			testSlow.update(100 + i % 5, 200, true, currentTime);
+			currentTime += 1000;
+		}
+		assertEquals(0, testSlow.alertHistory.size());
+		assertEquals(true, testSlow.latencyForAlerting);
+		
+		// A single spike should be ignored
+		testSlow.update(300, 200, true, currentTime);
+		currentTime += 1000;
+		assertEquals(0, testSlow.alertHistory.size());
+		assertEquals(true, testSlow.latencyForAlerting);
+		
+		// Response time triples while site stays up, it should alert on latency and stay slow
+		for (int i = 0; i < 120; i++) {
+			testSlow.update(300, 200, true, currentTime);
+			currentTime += 1000;
+		}
+		assertEquals(1, testSlow.alertHistory.size());
+		assertEquals(true, testSlow.alertHistory.getMessages().get(0).startsWith("Website http://SlowWebsite is slow. "));
+		assertEquals(false, testSlow.latencyForAlerting);
+		assertEquals(true, testSlow.availabilityForAltering);
+		
+		// Response time back to normal for a while, it should resume
+		for (int i = 0; i < WebRequestData.LATENCY_ALERT_COUNT; i++) {
+			testSlow.update(100, 200, true, currentTime);
+			currentTime += 1000;
+		}
+		assertEquals(2, testSlow.alertHistory.size());
+		assertEquals(true, testSlow.alertHistory.getMessages().get(1).startsWith("Website http://SlowWebsite's response time resumes. "));
+		assertEquals(true, testSlow.latencyForAlerting);
+	}
+	
+	@Test
+	void testStepChange() throws Exception {
+		WebRequestData testStep = new WebRequestData(new URL("http://StepWebsite"), 1000);
+		double currentTime = System.currentTimeMillis();
+		
+		for (int i = 0; i < 60; i++) {
+			testStep.update(100, 200, true, currentTime);
+			currentTime += 1000;
+		}
+		
+		// Response time steps up and stays there, site stays slow until it's re-baselined
+		double slowTime = WebRequestData.LATENCY_REBASELINE_INTERVAL - 1000 * 60;
+		for (double time = 0; time < slowTime; time += 1000) {
+			testStep.update(300, 200, true, currentTime);
+			currentTime += 1000;
+		}
+		assertEquals(1, testStep.alertHistory.size());
+		assertEquals(false, testStep.latencyForAlerting);
+		
+		// After re-baselining and warming up again, the new level is treated as normal
+		for (int i = 0; i < 120 + LatencyBaseline.WARM_UP_COUNT + WebRequestData.LATENCY_ALERT_COUNT; i++) {
+			testStep.update(300, 200, true, currentTime);
+			currentTime += 1000;
+		}
+		assertEquals(2, testStep.alertHistory.size());
+		assertEquals(true, testStep.alertHistory.getMessages().get(1).startsWith("Website http://StepWebsite's response time resumes. "));
+		assertEquals(true, testStep.latencyForAlerting);
+		assertEquals(300, testStep.latencyBaseline.getMean(), 1e-9);
+	}
+	
+	@Test
+	void testConstantInput() {
+		LatencyBaseline baseline = new LatencyBaseline();
+		double currentTime = 0;
+		
+		// Constant response time should give a baseline with no deviation
+		for (int i = 0; i < LatencyBaseline.WARM_UP_COUNT; i++) {
+			assertEquals(0, baseline.getZScore(100, currentTime));
+			baseline.update(100, currentTime);
+			currentTime += 1000;
+		}
+		assertEquals(true, baseline.isReady());
+		assertEquals(100, baseline.getMean(), 1e-9);
+		assertEquals(0, baseline.getDeviation(), 1e-9);
+		
+		// Right after warm up, doubled response time is scored against the deviation floor
+		assertEquals(100 / (LatencyBaseline.MIN_RELATIVE_DEVIATION * 100), baseline.getZScore(200, currentTime), 1e-9);
+		assertEquals(0, baseline.getZScore(100, currentTime), 1e-9);
+	}
+	
+	@Test
+	void testSeasonal() {
+		LatencyBaseline baseline = new LatencyBaseline(true);
+		double currentTime = 0;
+		
+		// Hour-of-day bucket is only updated once its hour is over
+		for (int i = 0; i < 60; i++) {
+			baseline.update(100, currentTime);
+			currentTime += 1000 * 60;
+		}
+		assertEquals(0, baseline.seasonalDays[0]);
+		baseline.update(100, currentTime);
+		assertEquals(1, baseline.seasonalDays[0]);
+		assertEquals(100, baseline.seasonalMean[0], 1e-3);
+		
+		// Site is slow at 3 o'clock every day, one sample per minute
+		currentTime = 0;
+		for (int day = 0; day < LatencyBaseline.SEASONAL_WARM_UP_DAYS; day++) {
+			// Bucket is not trusted before enough days, so 3 o'clock is still scored against the overall baseline
+			assertEquals(true, baseline.getZScore(300, currentTime + 3 * LatencyBaseline.HOUR_IN_MILLIS) > 3);
+			
+			for (int i = 0; i < LatencyBaseline.HOURS_PER_DAY * 60; i++) {
+				int hour = (int) (currentTime / LatencyBaseline.HOUR_IN_MILLIS) % LatencyBaseline.HOURS_PER_DAY;
+				baseline.update(hour == 3 ? 300 : 100, currentTime);
+				currentTime += 1000 * 60;
+			}
+		}
+		assertEquals(LatencyBaseline.SEASONAL_WARM_UP_DAYS, baseline.seasonalDays[3]);
+		
+		// Once trusted, slow 3 o'clock is normal while the same response time at 5 o'clock is not
+		assertEquals(0, baseline.getZScore(300, currentTime + 3 * LatencyBaseline.HOUR_IN_MILLIS), 1e-3);
+		assertEquals(true, baseline.getZScore(300, currentTime + 5 * LatencyBaseline.HOUR_IN_MILLIS) > 3);
+	}
+}
\ No newline at end of file
@@ -38,6 +38,7 @@ public class MainRunner {
 	private static void init() {
 		System.out.println("Please enter the websites for monitoring along with its check interval (in millisecond).");
 		System.out.println("Example: " + "\r" + "www.google.com 800" + "\r" + "github.com 1000");
+		System.out.println("Add \"seasonal\" after the interval to compare response time with the same hour on previous days. ");
 		System.out.println("Press Enter once complete. ");
 		
 		webRequestDataSet = new HashSet<>();
@@ -83,6 +84,7 @@ public class MainRunner {
 			WebRequestData webData = new WebRequestData();
 			webData.setURL(new URL("http://" + rawInputSplit[0]));
 			webData.setInterval(Integer.valueOf(rawInputSplit[1]));
+			webData.setSeasonalBaseline(rawInputSplit.length > 2 && rawInputSplit[2].equals("seasonal"));
 			
 			return webData;
 		} else {
@@ -106,6 +106,7 @@ public class Printer {
 		System.out.println("Avg response time: " + printInfo.avgResponseTime);
 		System.out.println("Max response time: " + printInfo.maxResponseTime);
 		System.out.println("Min response time: " + printInfo.minResponseTime);
+		System.out.println("Baseline response time: " + printInfo.baselineResponseTime + " (deviation " + printInfo.baselineDeviation + ")");
 		
 		for (Map.Entry<Integer, Integer> responseCode : printInfo.responseCodeCount.entrySet()) {
 			System.out.println("Response code " + responseCode.getKey() + " count: " + responseCode.getValue());
@@ -116,5 +117,8 @@ public class Printer {
 		for (String message : printInfo.alertingMessages) {
 			System.out.println(message);
 		}
+		if (printInfo.suppressedAlertCount > 0) {
+			System.out.println(printInfo.suppressedAlertCount + " alerts suppressed due to flapping");
+		}
 	}
 }
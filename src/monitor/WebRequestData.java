@@ -1,7 +1,6 @@
 package monitor;
 
 import java.net.URL;
-import java.text.SimpleDateFormat;
 import java.util.*;
 
 /**
@@ -22,6 +21,15 @@ public class WebRequestData {
 	static final double ALERT_CHECK_INTERVAL = 1000 * 60 * 2;
 	static final double ALERT_THRESHOLD = 0.8;
 	
+	// Response time this many deviations above its baseline is treated as a latency anomaly
+	static final double LATENCY_ANOMALY_THRESHOLD = 3.0;
+	// Response time has to drop below this many deviations to be treated as normal again
+	static final double LATENCY_RESUME_THRESHOLD = 1.5;
+	// Consecutive samples needed before sending or resolving a latency alerting, so a single spike is ignored
+	static final int LATENCY_ALERT_COUNT = 3;
+	// Site still slow after this long is re-baselined, so a lasting step change becomes the new normal
+	static final double LATENCY_REBASELINE_INTERVAL = 1000 * 60 * 30;
+	
 	URL url;
 	double interval;
 	
@@ -33,16 +41,25 @@ public class WebRequestData {
 	List<ResponseDataInfo> responseCodeList;
 	Map<Integer, Integer> responseCodeCount;
 	
-	public List<String> alertingMessageList;
+	// Bounded structured history, messages are only formatted when printed
+	public AlertHistory alertHistory;
 	public boolean availabilityForAltering;
 	
+	// Streaming baseline is used to detect latency anomaly without keeping extra history
+	LatencyBaseline latencyBaseline;
+	public boolean latencyForAlerting;
+	int latencyStreak;
+	double latencySlowSince;
+	
 	public WebRequestData() {
 		this.availabilityList = new ArrayList<ResponseDataInfo>();
 		this.responseTimeList = new ArrayList<ResponseDataInfo>();
 		this.responseCodeList = new ArrayList<ResponseDataInfo>();
 		this.responseCodeCount = new HashMap<Integer, Integer>();
-		this.alertingMessageList = new ArrayList<String>();
+		this.alertHistory = new AlertHistory();
 		this.availabilityForAltering = true;
+		this.latencyBaseline = new LatencyBaseline();
+		this.latencyForAlerting = true;
 	}
 	
 	public WebRequestData(URL url, double interval) {
@@ -52,8 +69,10 @@ public class WebRequestData {
 		this.responseTimeList = new ArrayList<ResponseDataInfo>();
 		this.responseCodeList = new ArrayList<ResponseDataInfo>();
 		this.responseCodeCount = new HashMap<Integer, Integer>();
-		this.alertingMessageList = new ArrayList<String>();
+		this.alertHistory = new AlertHistory();
 		this.availabilityForAltering = true;
+		this.latencyBaseline = new LatencyBaseline();
+		this.latencyForAlerting = true;
 	}
 	
 	/**
@@ -75,6 +94,15 @@ public class WebRequestData {
 		if (this.availabilityList.get(this.availabilityList.size() - 1).timeLineInfo - this.availabilityList.get(0).timeLineInfo >= ALERT_CHECK_INTERVAL) {
 			checkAlerting(currentTime);
 		}
+		
+		// Failed request has no response time, so it only counts towards availability
+		if (availability) {
+			checkLatencyAlerting(responseTime, currentTime);
+		}
+		
+		// Report state changes suppressed while the site was flapping
+		printAlerting(this.alertHistory.flushSuppressed(true, currentTime));
+		printAlerting(this.alertHistory.flushSuppressed(false, currentTime));
 	}
 
 	/**
@@ -94,28 +122,72 @@ public class WebRequestData {
 		}
 		double availabilityRate = availablityWithinInterval == 0 ? 0 : trueCount / availablityWithinInterval;
 		
-		// Update alerting messages and print them if any
-		Date date = new Date();
-		date.setTime((long) currentTime);
+		// Update alerting history and print new alert if any
 		if (availabilityRate < ALERT_THRESHOLD && this.availabilityForAltering == true) {
-			this.alertingMessageList.add("Website " + this.url.toString() + " is down. Availability = " + availabilityRate + ", time = " + new SimpleDateFormat().format(date));
-			
-			for (String message : alertingMessageList) {
-				System.out.println(message);
-			}
+			printAlerting(this.alertHistory.add(this.url.toString(), AlertState.DOWN, availabilityRate, 0, currentTime));
 			
 			this.availabilityForAltering = false;
 		} else if (availabilityRate >= ALERT_THRESHOLD && this.availabilityForAltering == false) {
-			this.alertingMessageList.add("Website " + this.url.toString() + "'s availability resumes. Availability = " + availabilityRate + ", time = " + new SimpleDateFormat().format(date));
-			
-			for (String message : alertingMessageList) {
-				System.out.println(message);
-			}
+			printAlerting(this.alertHistory.add(this.url.toString(), AlertState.AVAILABILITY_RESUMES, availabilityRate, 0, currentTime));
 			
 			this.availabilityForAltering = true;
 		}
 	}
 
+	/**
+	 * Method to check whether to send a latency alerting
+	 * @param responseTime Site response time
+	 * @param currentTime Response time updated time
+	 */
+	public void checkLatencyAlerting(double responseTime, double currentTime) {
+		double zScore = this.latencyBaseline.getZScore(responseTime, currentTime);
+		
+		// Update alerting history and print new alert if any
+		if (this.latencyForAlerting == true) {
+			if (zScore < LATENCY_ANOMALY_THRESHOLD) {
+				// Only normal samples are folded into baseline, so a slowdown can't become the new baseline
+				this.latencyStreak = 0;
+				this.latencyBaseline.update(responseTime, currentTime);
+			} else if (++this.latencyStreak >= LATENCY_ALERT_COUNT) {
+				printAlerting(this.alertHistory.add(this.url.toString(), AlertState.SLOW, responseTime, this.latencyBaseline.getMean(), currentTime));
+				
+				this.latencyStreak = 0;
+				this.latencySlowSince = currentTime;
+				this.latencyForAlerting = false;
+			}
+		} else if (!this.latencyBaseline.isReady()) {
+			// Re-baselined site warms up on its current response time before it can resume
+			this.latencyStreak = 0;
+			this.latencyBaseline.update(responseTime, currentTime);
+		} else if (currentTime - this.latencySlowSince >= LATENCY_REBASELINE_INTERVAL) {
+			// Site has been slow for too long, start over from the current response time
+			this.latencyStreak = 0;
+			this.latencyBaseline.reset();
+			this.latencyBaseline.update(responseTime, currentTime);
+			this.latencySlowSince = currentTime;
+		} else {
+			// Baseline is frozen while alerting, it resumes only after response time stays low for a while
+			if (zScore >= LATENCY_RESUME_THRESHOLD) {
+				this.latencyStreak = 0;
+			} else if (++this.latencyStreak >= LATENCY_ALERT_COUNT) {
+				printAlerting(this.alertHistory.add(this.url.toString(), AlertState.RESPONSE_TIME_RESUMES, responseTime, this.latencyBaseline.getMean(), currentTime));
+				
+				this.latencyStreak = 0;
+				this.latencyForAlerting = true;
+			}
+		}
+	}
+
+	/**
+	 * Print a newly recorded alert
+	 * @param record Alert just recorded, null if it's suppressed or there is nothing to report
+	 */
+	private void printAlerting(AlertRecord record) {
+		if (record != null) {
+			System.out.println(record.format());
+		}
+	}
+
 	/**
 	 * Update response code and remove outdated response code, both list and hashmap
 	 * @param responseCode Response code for this request
@@ -185,7 +257,10 @@ public class WebRequestData {
 		printInfo.maxResponseTime = getMaxResponseTime(this.responseTimeList);
 		printInfo.minResponseTime = getMinResponseTime(this.responseTimeList);
 		printInfo.responseCodeCount = this.responseCodeCount;
-		printInfo.alertingMessages = this.alertingMessageList;
+		printInfo.baselineResponseTime = this.latencyBaseline.getMean();
+		printInfo.baselineDeviation = this.latencyBaseline.getDeviation();
+		printInfo.alertingMessages = this.alertHistory.getMessages();
+		printInfo.suppressedAlertCount = this.alertHistory.getSuppressedCount();
 		
 		return printInfo;
 	}
@@ -205,7 +280,10 @@ public class WebRequestData {
 		printInfo.maxResponseTime = getMaxResponseTime(shortResponseTimeList);
 		printInfo.minResponseTime = getMinResponseTime(shortResponseTimeList);
 		printInfo.responseCodeCount = getShortResponseCodeCount(this.responseCodeList);
-		printInfo.alertingMessages = this.alertingMessageList;
+		printInfo.baselineResponseTime = this.latencyBaseline.getMean();
+		printInfo.baselineDeviation = this.latencyBaseline.getDeviation();
+		printInfo.alertingMessages = this.alertHistory.getMessages();
+		printInfo.suppressedAlertCount = this.alertHistory.getSuppressedCount();
 		
 		return printInfo;
 	}
@@ -319,6 +397,10 @@ public class WebRequestData {
 	public void setInterval(double interval) {
 		this.interval = interval;
 	}
+	
+	public void setSeasonalBaseline(boolean seasonal) {
+		this.latencyBaseline = new LatencyBaseline(seasonal);
+	}
 }
 
 /**
@@ -345,8 +427,11 @@ class PrintInfo {
 	double maxResponseTime;
 	double minResponseTime;
 	double availabilityRate;
+	double baselineResponseTime;
+	double baselineDeviation;
 	Map<Integer, Integer> responseCodeCount;
 	List<String> alertingMessages;
+	int suppressedAlertCount;
 	
 	PrintInfo(String url, double interval) {
 		this.url = url;